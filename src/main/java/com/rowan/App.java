@@ -14,6 +14,8 @@ import javafx.scene.layout.Pane;
  * Main file. Sets up simulation window.
  */
 public class App extends Application {
+    private Simulation s;
+
     @Override
     public void start(Stage stage) {
         Pane root = new Pane();
@@ -22,7 +24,7 @@ public class App extends Application {
         scene.setFill(Color.BLACK);
 
         Pane simulationPane = new Pane();   // Holds all cells and borders
-        Simulation s = new Simulation(scene, simulationPane);
+        s = new Simulation(scene, simulationPane);
 
         // Draw borders
         new SimulationBorders(s.ZOOM_FACTOR, s.ENV_WIDTH, s.ENV_HEIGHT, simulationPane);
@@ -45,6 +47,11 @@ public class App extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (s != null) s.close();
+    }
+
     public static void main(String[] args) {
         launch();
     }
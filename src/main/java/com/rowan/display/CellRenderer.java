@@ -0,0 +1,89 @@
+package com.rowan.display;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.rowan.physicsobject.cell.CellPopulation;
+import com.rowan.physicsobject.cell.CellStorage;
+import com.rowan.physicsobject.cell.CellType;
+import com.rowan.physicsobject.cell.CellTypeRegistry;
+
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Circle;
+
+/**
+ * Draws a CellPopulation with one Circle per drawn storage index.
+ * Shapes are tied to indices rather than cells, so cells can be moved around in storage freely;
+ * a shape is only restyled when the type at its index changes.
+ *
+ * At most maxShapes cells are drawn. Beyond that, every stride-th index is drawn, an even sample
+ * across all types since cells are stored grouped by type, so shape count and per-step rendering
+ * work stay bounded however many cells are stored.
+ */
+public class CellRenderer {
+    private final Pane root;
+    private final int maxShapes;
+    private final ArrayList<Circle> shapes = new ArrayList<>();
+    private int[] shapeType = new int[0];
+    private int drawn = 0;
+
+    /**
+     * Creates a new CellRenderer that adds its shapes to a given pane and draws every cell.
+     * @param root  Root Pane
+     */
+    public CellRenderer(Pane root) {
+        this(root, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new CellRenderer that adds its shapes to a given pane.
+     * @param root      Root Pane
+     * @param maxShapes Largest number of cells drawn, sampled evenly when there are more
+     */
+    public CellRenderer(Pane root, int maxShapes) {
+        if (maxShapes <= 0) throw new IllegalArgumentException("maxShapes must be positive, got " + maxShapes);
+        this.root = root;
+        this.maxShapes = maxShapes;
+    }
+
+    /**
+     * Updates every shape to match the current cell state, creating shapes for new cells.
+     * @param p Population
+     */
+    public void update(CellPopulation p) {
+        CellStorage c = p.getStorage();
+        CellTypeRegistry types = p.getTypes();
+        int count = p.size();
+        int stride = Math.max(1, (int)((count + (long)maxShapes - 1) / maxShapes));
+        int n = (count + stride - 1) / stride; // Number of drawn cells
+
+        if (shapes.size() < n) { // Add shapes for new cells in one batch
+            ArrayList<Circle> added = new ArrayList<>();
+            for (int k = shapes.size(); k < n; k++) added.add(new Circle());
+            shapes.addAll(added);
+            root.getChildren().addAll(added);
+
+            int old = shapeType.length;
+            shapeType = Arrays.copyOf(shapeType, shapes.size());
+            Arrays.fill(shapeType, old, shapeType.length, -1);
+        }
+
+        for (int k = n; k < drawn; k++) shapes.get(k).setVisible(false); // Fewer cells drawn after the stride grew
+        for (int k = drawn; k < n; k++) shapes.get(k).setVisible(true);
+        drawn = n;
+
+        for (int k = 0; k < n; k++) {
+            int i = k * stride;
+            Circle shape = shapes.get(k);
+            int type = c.getType(i);
+            if (shapeType[k] != type) {
+                CellType t = types.get(type);
+                shape.setRadius(t.radius);
+                shape.setFill(t.color);
+                shapeType[k] = type;
+            }
+            shape.setLayoutX(c.getPosX(i));
+            shape.setLayoutY(c.getPosY(i));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.rowan.physicsobject.cell;
+
+import org.joml.Vector2f;
+
+import com.rowan.simulation.SpatialGrid;
+import com.rowan.utils.Utils;
+
+/**
+ * Batched cell behaviours.
+ * Each kernel runs over a contiguous index range of a CellStorage, and per-type kernels take their
+ * parameters from a single CellType, so every loop body is the same code for every cell it visits.
+ */
+public final class CellKernels {
+    private CellKernels() {}
+
+    /**
+     * Updates positions by calculating a velocity vector using the current and previous positions in accordance with verlet integration.
+     * @param c         Cell storage
+     * @param friction  Velocity multiplier per step
+     * @param start     First index
+     * @param end       End index (exclusive)
+     */
+    public static void verletStep(CellStorage c, float friction, int start, int end) {
+        for (int i = start; i < end; i++) {
+            float x = c.getPosX(i);
+            float y = c.getPosY(i);
+            c.setPosX(i, x + (x - c.getPrevX(i))*friction);
+            c.setPosY(i, y + (y - c.getPrevY(i))*friction);
+            c.setPrevX(i, x);
+            c.setPrevY(i, y);
+        }
+    }
+
+    /**
+     * Constrains cells to the borders of the simulation space in accordance with verlet integration.
+     * @param c     Cell storage
+     * @param halfW Half of the simulation width
+     * @param halfH Half of the simulation height
+     * @param start First index
+     * @param end   End index (exclusive)
+     */
+    public static void borderConstraints(CellStorage c, float halfW, float halfH, int start, int end) {
+        for (int i = start; i < end; i++) {
+            float x = c.getPosX(i);
+            float y = c.getPosY(i);
+
+            if (x < -halfW || x > halfW) {
+                x = Math.max(-halfW, Math.min(x, halfW));
+                c.setPosX(i, x);
+                c.setPrevX(i, x);
+            }
+
+            if (y < -halfH || y > halfH) {
+                y = Math.max(-halfH, Math.min(y, halfH));
+                c.setPosY(i, y);
+                c.setPrevY(i, y);
+            }
+        }
+    }
+
+    /**
+     * Removes any velocity by setting the previous position of each cell to its current position.
+     * @param c     Cell storage
+     * @param start First index
+     * @param end   End index (exclusive)
+     */
+    public static void settle(CellStorage c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            c.setPrevX(i, c.getPosX(i));
+            c.setPrevY(i, c.getPosY(i));
+        }
+    }
+
+    /**
+     * Resolves overlap between every pair of cells in neighboring partitions in accordance with verlet integration.
+     * @param c             Cell storage
+     * @param radii         Radius per type id
+     * @param repulsions    Repulsion per type id
+     * @param grid          Spatial grid, rebuilt for the current cells
+     */
+    public static void collide(CellStorage c, float[] radii, float[] repulsions, SpatialGrid grid) {
+        int cols = grid.getCols();
+        int rows = grid.getRows();
+        int[] partitionStart = grid.getPartitionStart();
+        int[] partitionCells = grid.getPartitionCells();
+
+        for (int px = 0; px < cols; px++) { // Grid iteration
+            for (int py = 0; py < rows; py++) {
+                int p = px*rows + py;
+                for (int a = partitionStart[p]; a < partitionStart[p + 1]; a++) { // Cell iteration
+                    int i = partitionCells[a];
+                    int typeI = c.getType(i);
+                    float xi = c.getPosX(i);
+                    float yi = c.getPosY(i);
+
+                    for (int nx = Math.max(0, px - 1); nx <= Math.min(px + 1, cols - 1); nx++) { // Neighbor partition iteration
+                        for (int ny = Math.max(0, py - 1); ny <= Math.min(py + 1, rows - 1); ny++) {
+                            int q = nx*rows + ny;
+                            for (int b = partitionStart[q]; b < partitionStart[q + 1]; b++) {
+                                int j = partitionCells[b];
+                                if (j == i) continue;
+
+                                int typeJ = c.getType(j);
+                                float xj = c.getPosX(j);
+                                float yj = c.getPosY(j);
+                                float dx = xi - xj;
+                                float dy = yi - yj;
+                                float dist = (float)Math.sqrt(dx*dx + dy*dy);
+                                float minDist = radii[typeI] + radii[typeJ];
+
+                                if (dist < minDist && dist > 0) {
+                                    float overlap = 0.5f * (minDist - dist);
+                                    float push = overlap * 0.5f*(repulsions[typeI] + repulsions[typeJ]) / dist;
+                                    dx *= push;
+                                    dy *= push;
+
+                                    xi += dx;
+                                    yi += dy;
+                                    c.setPosX(j, xj - dx);
+                                    c.setPosY(j, yj - dy);
+                                }
+                            }
+                        }
+                    }
+
+                    c.setPosX(i, xi);
+                    c.setPosY(i, yi);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates and applies random cell movement of its own accord.
+     * Distinct from cell movement relating to external factors.
+     * @param c     Cell storage
+     * @param type  Type of every cell in the range
+     * @param start First index
+     * @param end   End index (exclusive)
+     */
+    public static void locomotion(CellStorage c, CellType type, int start, int end) {
+        float speed = type.speed;
+        float turnSpeed = type.turnSpeed;
+
+        for (int i = start; i < end; i++) {
+            float turnState = c.getTurnState(i);
+            if (Math.random() < 0.3) { // Turn State Calculation
+                double r = Math.random();
+                if (r < 1f/3) turnState = -1;
+                else if (r < 2f/3) turnState = 0;
+                else turnState = 1;
+                c.setTurnState(i, turnState);
+            }
+
+            float angle = c.getAngle(i) + turnState * turnSpeed; // Update Angle
+            c.setAngle(i, angle);
+            c.setPosX(i, c.getPosX(i) + (float)Math.cos(angle)*speed);
+            c.setPosY(i, c.getPosY(i) + (float)Math.sin(angle)*speed);
+        }
+    }
+
+    /**
+     * Handles all properties and functionality of the cell cycle, such as mitosis.
+     * Daughter cells are queued on the population and appear after flushSpawns.
+     * @param p     Population
+     * @param type  Type of every cell in the range
+     * @param start First index
+     * @param end   End index (exclusive)
+     */
+    public static void cellCycle(CellPopulation p, CellType type, int start, int end) {
+        CellStorage c = p.getStorage();
+        int cycleLength = type.cycleLength;
+        int typeId = type.getId();
+
+        for (int i = start; i < end; i++) {
+            int timer = c.getTimer(i) + 1;
+            if (timer == cycleLength) { // Mitosis Clock
+                timer = 0;
+                Vector2f offset = Utils.randomCircleVector2f(15, 20);
+                p.queueSpawn(typeId, c.getPosX(i) + offset.x, c.getPosY(i) + offset.y);
+            }
+            c.setTimer(i, timer);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.rowan.physicsobject.cell;
+
+import java.util.Arrays;
+
+/**
+ * Holds every cell in the simulation, grouped by type.
+ * Cells of type t occupy the contiguous index range [typeStart(t), typeEnd(t)) of the storage,
+ * which lets per-type kernels run over a plain index range with the type's parameters held constant.
+ */
+public class CellPopulation {
+    private final CellTypeRegistry types;
+    private final CellStorage storage;
+    private int count = 0;
+
+    private int[] typeStart = new int[1]; // typeStart[t] to typeStart[t + 1] is the range of type t
+
+    private int spawnCount = 0;
+    private int[] spawnType = new int[16];
+    private float[] spawnX = new float[16];
+    private float[] spawnY = new float[16];
+
+    /**
+     * Creates a new, empty CellPopulation over a given storage backend.
+     * @param types     Registry the population's type ids refer to
+     * @param storage   Cell storage
+     */
+    public CellPopulation(CellTypeRegistry types, CellStorage storage) {
+        this.types = types;
+        this.storage = storage;
+    }
+
+    /**
+     * Adopts the first count cells already present in the storage, e.g. from a checkpoint,
+     * and recomputes the type ranges from their type ids.
+     * @param count Number of stored cells
+     */
+    public void restore(int count) {
+        typeStart = new int[types.size() + 1];
+        int prev = 0;
+        for (int i = 0; i < count; i++) { // Count cells per type
+            int t = storage.getType(i);
+            if (t < prev || t >= types.size()) throw new IllegalStateException("Stored cells are not grouped by registered type at index " + i);
+            typeStart[t + 1]++;
+            prev = t;
+        }
+        for (int t = 0; t < types.size(); t++) {
+            typeStart[t + 1] += typeStart[t];
+        }
+        this.count = count;
+    }
+
+    /**
+     * Adds a cell immediately, shifting at most one cell per later type to keep type ranges contiguous.
+     * Must not be called while a kernel is iterating over the population; use queueSpawn instead.
+     * @param typeId    Type id
+     * @param x         x position
+     * @param y         y position
+     * @return index of the new cell
+     */
+    public int add(int typeId, float x, float y) {
+        if (typeId < 0 || typeId >= types.size()) throw new IllegalArgumentException("Unregistered cell type id " + typeId);
+        syncTypes();
+        storage.ensureCapacity(count + 1);
+
+        int hole = count;
+        for (int t = types.size() - 1; t > typeId; t--) { // Move first cell of each later type to the end of its range
+            int first = typeStart[t];
+            if (first != hole) storage.copy(first, hole);
+            hole = first;
+            typeStart[t]++;
+        }
+
+        storage.setPosX(hole, x);
+        storage.setPosY(hole, y);
+        storage.setPrevX(hole, x);
+        storage.setPrevY(hole, y);
+        storage.setAngle(hole, (float)(Math.random()*2*Math.PI));
+        storage.setTurnState(hole, 0);
+        storage.setTimer(hole, 0);
+        storage.setType(hole, typeId);
+        storage.setPartition(hole, -1);
+
+        count++;
+        typeStart[types.size()] = count;
+        return hole;
+    }
+
+    /**
+     * Adds many cells at once, scattering each directly into its final slot in one pass.
+     * Existing cells are shifted at most once, and new cells keep their input order within each type,
+     * so input sorted by partition stays spatially coherent in storage.
+     * Must not be called while a kernel is iterating over the population.
+     * @param n         Number of cells
+     * @param typeIds   Type id per cell
+     * @param xs        x position per cell
+     * @param ys        y position per cell
+     */
+    public void addAll(int n, int[] typeIds, float[] xs, float[] ys) {
+        syncTypes();
+        int typeCount = types.size();
+        storage.ensureCapacity(count + n);
+
+        int[] added = new int[typeCount];
+        for (int k = 0; k < n; k++) { // Count new cells per type
+            int t = typeIds[k];
+            if (t < 0 || t >= typeCount) throw new IllegalArgumentException("Unregistered cell type id " + t);
+            added[t]++;
+        }
+
+        int[] newStart = new int[typeCount + 1];
+        for (int t = 0; t < typeCount; t++) {
+            newStart[t + 1] = newStart[t] + (typeStart[t + 1] - typeStart[t]) + added[t];
+        }
+
+        int[] cursor = new int[typeCount];
+        for (int t = typeCount - 1; t >= 0; t--) { // Shift existing ranges right, last type first so none is overwritten
+            int start = typeStart[t];
+            int length = typeStart[t + 1] - start;
+            int shift = newStart[t] - start;
+            if (shift > 0) {
+                for (int i = start + length - 1; i >= start; i--) storage.copy(i, i + shift);
+            }
+            cursor[t] = newStart[t] + length;
+        }
+
+        for (int k = 0; k < n; k++) { // Scatter new cells into the gaps
+            int i = cursor[typeIds[k]]++;
+            float x = xs[k];
+            float y = ys[k];
+            storage.setPosX(i, x);
+            storage.setPosY(i, y);
+            storage.setPrevX(i, x);
+            storage.setPrevY(i, y);
+            storage.setAngle(i, (float)(Math.random()*2*Math.PI));
+            storage.setTurnState(i, 0);
+            storage.setTimer(i, 0);
+            storage.setType(i, typeIds[k]);
+            storage.setPartition(i, -1);
+        }
+
+        typeStart = newStart;
+        count += n;
+    }
+
+    /**
+     * Queues a cell to be added on the next call to flushSpawns.
+     * Safe to call from inside kernels.
+     * @param typeId    Type id
+     * @param x         x position
+     * @param y         y position
+     */
+    public void queueSpawn(int typeId, float x, float y) {
+        if (spawnCount == spawnType.length) {
+            spawnType = Arrays.copyOf(spawnType, spawnCount * 2);
+            spawnX = Arrays.copyOf(spawnX, spawnCount * 2);
+            spawnY = Arrays.copyOf(spawnY, spawnCount * 2);
+        }
+        spawnType[spawnCount] = typeId;
+        spawnX[spawnCount] = x;
+        spawnY[spawnCount] = y;
+        spawnCount++;
+    }
+
+    /**
+     * Adds every queued cell to the population.
+     */
+    public void flushSpawns() {
+        for (int i = 0; i < spawnCount; i++) {
+            add(spawnType[i], spawnX[i], spawnY[i]);
+        }
+        spawnCount = 0;
+    }
+
+    /**
+     * Extends the type range table to cover types registered since the last insertion.
+     * New types start with an empty range at the end of the population.
+     */
+    private void syncTypes() {
+        int old = typeStart.length;
+        if (old < types.size() + 1) {
+            typeStart = Arrays.copyOf(typeStart, types.size() + 1);
+            Arrays.fill(typeStart, old, typeStart.length, count);
+        }
+    }
+
+    /**
+     * Returns the first index of a type's range.
+     * @param typeId    Type id
+     * @return first index
+     */
+    public int typeStart(int typeId) {
+        return typeId < typeStart.length - 1 ? typeStart[typeId] : count;
+    }
+
+    /**
+     * Returns the index one past the end of a type's range.
+     * @param typeId    Type id
+     * @return end index (exclusive)
+     */
+    public int typeEnd(int typeId) {
+        return typeId < typeStart.length - 1 ? typeStart[typeId + 1] : count;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public CellStorage getStorage() {
+        return storage;
+    }
+
+    public CellTypeRegistry getTypes() {
+        return types;
+    }
+}
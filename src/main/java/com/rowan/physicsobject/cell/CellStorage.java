@@ -0,0 +1,74 @@
+package com.rowan.physicsobject.cell;
+
+/**
+ * Struct-of-arrays storage for cell state, addressed by cell index.
+ * Kernels only go through these primitive accessors, so the same stepping code runs
+ * against any backend without boxing or copying.
+ */
+public interface CellStorage extends AutoCloseable {
+    /**
+     * Returns the number of cells that fit without growing.
+     * @return capacity
+     */
+    int capacity();
+
+    /**
+     * Grows every field so that at least the given number of cells fit.
+     * @param capacity  Required capacity
+     */
+    void ensureCapacity(int capacity);
+
+    /**
+     * Copies every field of one cell over another.
+     * @param from  source index
+     * @param to    destination index
+     */
+    void copy(int from, int to);
+
+    float getPosX(int i);
+    void setPosX(int i, float v);
+
+    float getPosY(int i);
+    void setPosY(int i, float v);
+
+    float getPrevX(int i);
+    void setPrevX(int i, float v);
+
+    float getPrevY(int i);
+    void setPrevY(int i, float v);
+
+    float getAngle(int i);
+    void setAngle(int i, float v);
+
+    float getTurnState(int i);
+    void setTurnState(int i, float v);
+
+    int getTimer(int i);
+    void setTimer(int i, int v);
+
+    int getType(int i);
+    void setType(int i, int v);
+
+    int getPartition(int i);
+    void setPartition(int i, int v);
+
+    /**
+     * Persists the first count cells, if the backend supports it.
+     * @param count Number of cells in use
+     */
+    default void checkpoint(int count) {}
+
+    /**
+     * Returns the number of cells persisted by the last checkpoint, if the backend was opened over existing state.
+     * @return saved cell count
+     */
+    default int savedCount() {
+        return 0;
+    }
+
+    /**
+     * Releases any memory or files held by the storage.
+     */
+    @Override
+    default void close() {}
+}
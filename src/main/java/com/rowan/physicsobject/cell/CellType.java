@@ -0,0 +1,48 @@
+package com.rowan.physicsobject.cell;
+
+import javafx.scene.paint.Color;
+
+/**
+ * A parameter table describing one kind of cell.
+ * Cells reference their type by id, and every behaviour of the type is driven by these values,
+ * so adding a new kind of cell means registering a new CellType rather than writing a subclass.
+ */
+public class CellType {
+    public final String name;
+    public final float radius;
+    public final float speed;
+    public final float turnSpeed;
+    public final int cycleLength;
+    public final float repulsion;
+    public final Color color;
+
+    int id = -1;
+
+    /**
+     * Creates a new CellType with the given parameters.
+     * @param name          Name
+     * @param radius        Radius (also used as the collision radius)
+     * @param speed         Locomotion speed per step
+     * @param turnSpeed     Angle change per step while turning
+     * @param cycleLength   Number of steps between mitoses
+     * @param repulsion     Strength of collision response
+     * @param color         Color
+     */
+    public CellType(String name, float radius, float speed, float turnSpeed, int cycleLength, float repulsion, Color color) {
+        this.name = name;
+        this.radius = radius;
+        this.speed = speed;
+        this.turnSpeed = turnSpeed;
+        this.cycleLength = cycleLength;
+        this.repulsion = repulsion;
+        this.color = color;
+    }
+
+    /**
+     * Returns the id assigned to this type by its CellTypeRegistry.
+     * @return type id, or -1 if not registered
+     */
+    public int getId() {
+        return id;
+    }
+}
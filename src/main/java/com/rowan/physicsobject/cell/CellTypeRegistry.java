@@ -0,0 +1,81 @@
+package com.rowan.physicsobject.cell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Assigns ids to CellTypes and keeps the parameters needed by pairwise kernels in flat arrays indexed by type id.
+ */
+public class CellTypeRegistry {
+    private final ArrayList<CellType> types = new ArrayList<>();
+    private final float maxRadius;
+
+    private float[] radii = new float[0];
+    private float[] repulsions = new float[0];
+
+    /**
+     * Creates a new, empty CellTypeRegistry.
+     * @param maxRadius Largest radius a type may have, e.g. so that colliding cells are never more than one grid partition apart
+     */
+    public CellTypeRegistry(float maxRadius) {
+        this.maxRadius = maxRadius;
+    }
+
+    /**
+     * Registers a CellType and assigns it the next free id.
+     * Rejects types with a non-positive radius or cycle length, or a radius above the maximum.
+     * @param type  CellType
+     * @return assigned id
+     */
+    public int register(CellType type) {
+        if (type.id != -1) throw new IllegalArgumentException("Cell type '" + type.name + "' is already registered");
+        if (!(type.radius > 0)) throw new IllegalArgumentException("Cell type '" + type.name + "' has radius " + type.radius + ", must be positive");
+        if (type.cycleLength <= 0) throw new IllegalArgumentException("Cell type '" + type.name + "' has cycle length " + type.cycleLength + ", must be positive");
+        if (type.radius > maxRadius) throw new IllegalArgumentException("Cell type '" + type.name + "' has radius " + type.radius + ", above the maximum of " + maxRadius);
+
+        type.id = types.size();
+        types.add(type);
+
+        radii = Arrays.copyOf(radii, types.size());
+        repulsions = Arrays.copyOf(repulsions, types.size());
+        radii[type.id] = type.radius;
+        repulsions[type.id] = type.repulsion;
+        return type.id;
+    }
+
+    public CellType get(int id) {
+        return types.get(id);
+    }
+
+    /**
+     * Returns the registered type with a given name.
+     * @param name  Name
+     * @return CellType, or null if no type has that name
+     */
+    public CellType get(String name) {
+        for (CellType t : types) {
+            if (t.name.equals(name)) return t;
+        }
+        return null;
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    /**
+     * Returns the radius of every registered type, indexed by type id.
+     * @return radii
+     */
+    public float[] getRadii() {
+        return radii;
+    }
+
+    /**
+     * Returns the repulsion of every registered type, indexed by type id.
+     * @return repulsions
+     */
+    public float[] getRepulsions() {
+        return repulsions;
+    }
+}
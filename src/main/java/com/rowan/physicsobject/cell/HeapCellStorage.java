@@ -0,0 +1,158 @@
+package com.rowan.physicsobject.cell;
+
+import java.util.Arrays;
+
+/**
+ * CellStorage backed by primitive arrays on the Java heap.
+ * Each field of a cell lives in its own array so kernels stream through memory without touching objects.
+ */
+public class HeapCellStorage implements CellStorage {
+    private float[] posX;
+    private float[] posY;
+    private float[] prevX;
+    private float[] prevY;
+    private float[] angle;
+    private float[] turnState;
+    private int[] timer;
+    private int[] type;
+    private int[] partition;
+
+    /**
+     * Creates a new HeapCellStorage with room for a given number of cells.
+     * @param capacity  Initial capacity
+     */
+    public HeapCellStorage(int capacity) {
+        posX = new float[capacity];
+        posY = new float[capacity];
+        prevX = new float[capacity];
+        prevY = new float[capacity];
+        angle = new float[capacity];
+        turnState = new float[capacity];
+        timer = new int[capacity];
+        type = new int[capacity];
+        partition = new int[capacity];
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity <= posX.length) return;
+        int newCapacity = Math.max(capacity, posX.length * 2);
+        posX = Arrays.copyOf(posX, newCapacity);
+        posY = Arrays.copyOf(posY, newCapacity);
+        prevX = Arrays.copyOf(prevX, newCapacity);
+        prevY = Arrays.copyOf(prevY, newCapacity);
+        angle = Arrays.copyOf(angle, newCapacity);
+        turnState = Arrays.copyOf(turnState, newCapacity);
+        timer = Arrays.copyOf(timer, newCapacity);
+        type = Arrays.copyOf(type, newCapacity);
+        partition = Arrays.copyOf(partition, newCapacity);
+    }
+
+    @Override
+    public void copy(int from, int to) {
+        posX[to] = posX[from];
+        posY[to] = posY[from];
+        prevX[to] = prevX[from];
+        prevY[to] = prevY[from];
+        angle[to] = angle[from];
+        turnState[to] = turnState[from];
+        timer[to] = timer[from];
+        type[to] = type[from];
+        partition[to] = partition[from];
+    }
+
+    @Override
+    public int capacity() {
+        return posX.length;
+    }
+
+    @Override
+    public float getPosX(int i) {
+        return posX[i];
+    }
+
+    @Override
+    public void setPosX(int i, float v) {
+        posX[i] = v;
+    }
+
+    @Override
+    public float getPosY(int i) {
+        return posY[i];
+    }
+
+    @Override
+    public void setPosY(int i, float v) {
+        posY[i] = v;
+    }
+
+    @Override
+    public float getPrevX(int i) {
+        return prevX[i];
+    }
+
+    @Override
+    public void setPrevX(int i, float v) {
+        prevX[i] = v;
+    }
+
+    @Override
+    public float getPrevY(int i) {
+        return prevY[i];
+    }
+
+    @Override
+    public void setPrevY(int i, float v) {
+        prevY[i] = v;
+    }
+
+    @Override
+    public float getAngle(int i) {
+        return angle[i];
+    }
+
+    @Override
+    public void setAngle(int i, float v) {
+        angle[i] = v;
+    }
+
+    @Override
+    public float getTurnState(int i) {
+        return turnState[i];
+    }
+
+    @Override
+    public void setTurnState(int i, float v) {
+        turnState[i] = v;
+    }
+
+    @Override
+    public int getTimer(int i) {
+        return timer[i];
+    }
+
+    @Override
+    public void setTimer(int i, int v) {
+        timer[i] = v;
+    }
+
+    @Override
+    public int getType(int i) {
+        return type[i];
+    }
+
+    @Override
+    public void setType(int i, int v) {
+        type[i] = v;
+    }
+
+    @Override
+    public int getPartition(int i) {
+        return partition[i];
+    }
+
+    @Override
+    public void setPartition(int i, int v) {
+        partition[i] = v;
+    }
+}
@@ -0,0 +1,329 @@
+package com.rowan.physicsobject.cell;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * CellStorage held outside the Java heap in a single MemorySegment.
+ * The segment starts with a small header followed by one block per field, each block holding
+ * that field for every cell, so the garbage collector never scans cell state.
+ *
+ * When opened with map, live state is memory-mapped onto a scratch file next to the checkpoint file,
+ * letting state larger than RAM page to disk. The scratch file is rewritten freely while stepping and
+ * is discarded on close. A checkpoint copies the cells into a new file with the same block layout and
+ * atomically renames it over the checkpoint file, so the checkpoint is always a consistent snapshot
+ * taken between steps, and a crash leaves the previous one intact.
+ */
+public class OffHeapCellStorage implements CellStorage {
+    private static final long MAGIC = 0x53494C49434F4345L; // "SILICOCE"
+    private static final long HEADER_SIZE = 64;             // Magic at 0, cell count at 8
+    private static final int FIELD_COUNT = 9;
+    private static final int FIELD_SIZE = 4;
+
+    private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+
+    private final FileChannel channel;      // Scratch file holding live state, null when in native memory
+    private final Path checkpointFile;      // null when checkpoints are not kept
+
+    private Arena arena;
+    private MemorySegment segment;
+    private int capacity;
+    private int savedCount = 0;
+
+    private long posX;
+    private long posY;
+    private long prevX;
+    private long prevY;
+    private long angle;
+    private long turnState;
+    private long timer;
+    private long type;
+    private long partition;
+
+    private OffHeapCellStorage(FileChannel channel, Path checkpointFile) {
+        this.channel = channel;
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Creates a new OffHeapCellStorage in native memory.
+     * @param capacity  Initial capacity
+     * @return storage
+     */
+    public static OffHeapCellStorage allocate(int capacity) {
+        OffHeapCellStorage s = new OffHeapCellStorage(null, null);
+        s.arena = Arena.ofShared();
+        s.segment = s.arena.allocate(byteSize(capacity), HEADER_SIZE);
+        s.setCapacity(capacity);
+        return s;
+    }
+
+    /**
+     * Opens an OffHeapCellStorage whose live state is memory-mapped onto a scratch file,
+     * with checkpoints written to a given file.
+     * If the checkpoint file exists, its cells are loaded and reported by savedCount.
+     * @param file      Checkpoint file
+     * @param capacity  Minimum capacity
+     * @return storage
+     */
+    public static OffHeapCellStorage map(Path file, int capacity) {
+        Path live = file.resolveSibling(file.getFileName() + ".live");
+        try {
+            FileChannel channel = FileChannel.open(live, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            OffHeapCellStorage s = new OffHeapCellStorage(channel, file);
+            s.arena = Arena.ofShared();
+            s.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize(0), s.arena);
+            s.setCapacity(0);
+
+            try {
+                if (Files.exists(file)) s.loadCheckpoint();
+                s.ensureCapacity(Math.max(capacity, 1));
+            } catch (RuntimeException | IOException e) {
+                s.close();
+                throw e;
+            }
+            return s;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies the cells of the checkpoint file into live state.
+     */
+    private void loadCheckpoint() throws IOException {
+        try (FileChannel in = FileChannel.open(checkpointFile, StandardOpenOption.READ); Arena a = Arena.ofConfined()) {
+            if (in.size() < HEADER_SIZE) throw new IllegalArgumentException("Not a cell state file: " + checkpointFile);
+            MemorySegment saved = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size(), a);
+            if (saved.get(ValueLayout.JAVA_LONG, 0) != MAGIC) throw new IllegalArgumentException("Not a cell state file: " + checkpointFile);
+
+            long count = saved.get(ValueLayout.JAVA_LONG, 8);
+            if (count < 0 || count > Integer.MAX_VALUE || in.size() != byteSize((int)count)) {
+                throw new IllegalArgumentException("Cell state file does not match its header: " + checkpointFile);
+            }
+
+            ensureCapacity((int)count);
+            long savedBlock = count * FIELD_SIZE;
+            long liveBlock = (long)capacity * FIELD_SIZE;
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                MemorySegment.copy(saved, HEADER_SIZE + f*savedBlock, segment, HEADER_SIZE + f*liveBlock, savedBlock);
+            }
+            savedCount = (int)count;
+        }
+    }
+
+    private static long byteSize(int capacity) {
+        return HEADER_SIZE + (long)FIELD_COUNT * capacity * FIELD_SIZE;
+    }
+
+    /**
+     * Sets the capacity and recomputes the offset of each field block.
+     */
+    private void setCapacity(int capacity) {
+        this.capacity = capacity;
+        long block = (long)capacity * FIELD_SIZE;
+        posX = HEADER_SIZE;
+        posY = posX + block;
+        prevX = posY + block;
+        prevY = prevX + block;
+        angle = prevY + block;
+        turnState = angle + block;
+        timer = turnState + block;
+        type = timer + block;
+        partition = type + block;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity <= this.capacity) return;
+        int oldCapacity = this.capacity;
+        int newCapacity = (int)Math.min(Integer.MAX_VALUE, Math.max(capacity, oldCapacity * 2L));
+        long oldBlock = (long)oldCapacity * FIELD_SIZE;
+        long newBlock = (long)newCapacity * FIELD_SIZE;
+
+        Arena newArena = Arena.ofShared();
+        if (channel != null) { // Remap the scratch file larger and spread the field blocks out in place
+            try {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize(newCapacity), newArena);
+            } catch (IOException e) {
+                newArena.close();
+                throw new UncheckedIOException(e);
+            }
+            arena.close();
+            for (int f = FIELD_COUNT - 1; f > 0; f--) { // Last block first, so no block overwrites one not yet moved
+                MemorySegment.copy(segment, HEADER_SIZE + f*oldBlock, segment, HEADER_SIZE + f*newBlock, oldBlock);
+            }
+        } else {
+            MemorySegment grown = newArena.allocate(byteSize(newCapacity), HEADER_SIZE);
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                MemorySegment.copy(segment, HEADER_SIZE + f*oldBlock, grown, HEADER_SIZE + f*newBlock, oldBlock);
+            }
+            arena.close();
+            segment = grown;
+        }
+
+        arena = newArena;
+        setCapacity(newCapacity);
+    }
+
+    @Override
+    public void copy(int from, int to) {
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            long block = HEADER_SIZE + (long)f * capacity * FIELD_SIZE;
+            segment.set(INT, block + (long)to * FIELD_SIZE, segment.get(INT, block + (long)from * FIELD_SIZE));
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes the first count cells to a new file, flushes it, and atomically replaces the checkpoint file with it.
+     * Must not be called while a kernel is iterating over the storage.
+     * Does nothing for storage opened without a checkpoint file.
+     * @param count Number of cells in use
+     */
+    @Override
+    public void checkpoint(int count) {
+        if (checkpointFile == null) return;
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE); Arena a = Arena.ofConfined()) {
+                MemorySegment snapshot = out.map(FileChannel.MapMode.READ_WRITE, 0, byteSize(count), a);
+                snapshot.set(ValueLayout.JAVA_LONG, 0, MAGIC);
+                snapshot.set(ValueLayout.JAVA_LONG, 8, count);
+
+                long savedBlock = (long)count * FIELD_SIZE;
+                long liveBlock = (long)capacity * FIELD_SIZE;
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    MemorySegment.copy(segment, HEADER_SIZE + f*liveBlock, snapshot, HEADER_SIZE + f*savedBlock, savedBlock);
+                }
+                snapshot.force();
+            }
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        savedCount = count;
+    }
+
+    @Override
+    public int savedCount() {
+        return savedCount;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public float getPosX(int i) {
+        return segment.get(FLOAT, posX + (long)i * FIELD_SIZE);
+    }
+
+    @Override
+    public void setPosX(int i, float v) {
+        segment.set(FLOAT, posX + (long)i * FIELD_SIZE, v);
+    }
+
+    @Override
+    public float getPosY(int i) {
+        return segment.get(FLOAT, posY + (long)i * FIELD_SIZE);
+    }
+
+    @Override
+    public void setPosY(int i, float v) {
+        segment.set(FLOAT, posY + (long)i * FIELD_SIZE, v);
+    }
+
+    @Override
+    public float getPrevX(int i) {
+        return segment.get(FLOAT, prevX + (long)i * FIELD_SIZE);
+    }
+
+    @Override
+    public void setPrevX(int i, float v) {
+        segment.set(FLOAT, prevX + (long)i * FIELD_SIZE, v);
+    }
+
+    @Override
+    public float getPrevY(int i) {
+        return segment.get(FLOAT, prevY + (long)i * FIELD_SIZE);
+    }
+
+    @Override
+    public void setPrevY(int i, float v) {
+        segment.set(FLOAT, prevY + (long)i * FIELD_SIZE, v);
+    }
+
+    @Override
+    public float getAngle(int i) {
+        return segment.get(FLOAT, angle + (long)i * FIELD_SIZE);
+    }
+
+    @Override
+    public void setAngle(int i, float v) {
+        segment.set(FLOAT, angle + (long)i * FIELD_SIZE, v);
+    }
+
+    @Override
+    public float getTurnState(int i) {
+        return segment.get(FLOAT, turnState + (long)i * FIELD_SIZE);
+    }
+
+    @Override
+    public void setTurnState(int i, float v) {
+        segment.set(FLOAT, turnState + (long)i * FIELD_SIZE, v);
+    }
+
+    @Override
+    public int getTimer(int i) {
+        return segment.get(INT, timer + (long)i * FIELD_SIZE);
+    }
+
+    @Override
+    public void setTimer(int i, int v) {
+        segment.set(INT, timer + (long)i * FIELD_SIZE, v);
+    }
+
+    @Override
+    public int getType(int i) {
+        return segment.get(INT, type + (long)i * FIELD_SIZE);
+    }
+
+    @Override
+    public void setType(int i, int v) {
+        segment.set(INT, type + (long)i * FIELD_SIZE, v);
+    }
+
+    @Override
+    public int getPartition(int i) {
+        return segment.get(INT, partition + (long)i * FIELD_SIZE);
+    }
+
+    @Override
+    public void setPartition(int i, int v) {
+        segment.set(INT, partition + (long)i * FIELD_SIZE, v);
+    }
+}
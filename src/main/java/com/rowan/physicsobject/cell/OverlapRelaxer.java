@@ -0,0 +1,281 @@
+package com.rowan.physicsobject.cell;
+
+import java.util.Arrays;
+
+import com.rowan.simulation.SpatialGrid;
+
+/**
+ * Removes overlap between freshly seeded cells without giving them velocity.
+ * Holds the scratch space for two kinds of pass:
+ * dilation, which spreads out a whole cluster that was packed denser than its cells allow, and
+ * Jacobi relaxation, which resolves the remaining local overlaps.
+ */
+public class OverlapRelaxer {
+    private final int count;
+
+    private final float[] moveX;
+    private final float[] moveY;
+    private final int[] contacts;
+
+    private final int[] cluster;        // Union-find parent per cell
+    private final int[] clusterSize;
+    private final double[] sumX;
+    private final double[] sumY;
+    private final double[] ratioSum;
+    private final int[] ratioCount;
+    private final float[] minX;         // Cluster bounding box
+    private final float[] maxX;
+    private final float[] minY;
+    private final float[] maxY;
+
+    /**
+     * Creates a new OverlapRelaxer for a given number of cells.
+     * @param count Number of cells
+     */
+    public OverlapRelaxer(int count) {
+        this.count = count;
+        moveX = new float[count];
+        moveY = new float[count];
+        contacts = new int[count];
+        cluster = new int[count];
+        clusterSize = new int[count];
+        sumX = new double[count];
+        sumY = new double[count];
+        ratioSum = new double[count];
+        ratioCount = new int[count];
+        minX = new float[count];
+        maxX = new float[count];
+        minY = new float[count];
+        maxY = new float[count];
+    }
+
+    /**
+     * Performs one Jacobi relaxation pass.
+     * Every push is computed from the positions at the start of the pass, and each cell then moves by the
+     * average of its pushes scaled by factor, so dense packings shrink their overlap instead of overshooting.
+     * @param c         Cell storage
+     * @param radii     Radius per type id
+     * @param grid      Spatial grid, rebuilt for the current cells
+     * @param factor    Fraction of the averaged push to apply (0 to 1)
+     * @return largest overlap found at the start of the pass
+     */
+    public float jacobiPass(CellStorage c, float[] radii, SpatialGrid grid, float factor) {
+        int cols = grid.getCols();
+        int rows = grid.getRows();
+        int[] partitionStart = grid.getPartitionStart();
+        int[] partitionCells = grid.getPartitionCells();
+
+        Arrays.fill(moveX, 0);
+        Arrays.fill(moveY, 0);
+        Arrays.fill(contacts, 0);
+        float maxOverlap = 0;
+
+        for (int px = 0; px < cols; px++) { // Grid iteration
+            for (int py = 0; py < rows; py++) {
+                int p = px*rows + py;
+                for (int a = partitionStart[p]; a < partitionStart[p + 1]; a++) { // Cell iteration
+                    int i = partitionCells[a];
+                    float ri = radii[c.getType(i)];
+                    float xi = c.getPosX(i);
+                    float yi = c.getPosY(i);
+
+                    for (int nx = Math.max(0, px - 1); nx <= Math.min(px + 1, cols - 1); nx++) { // Neighbor partition iteration
+                        for (int ny = Math.max(0, py - 1); ny <= Math.min(py + 1, rows - 1); ny++) {
+                            int q = nx*rows + ny;
+                            for (int b = partitionStart[q]; b < partitionStart[q + 1]; b++) {
+                                int j = partitionCells[b];
+                                if (j <= i) continue; // Visit each pair once
+
+                                float dx = xi - c.getPosX(j);
+                                float dy = yi - c.getPosY(j);
+                                float dist = (float)Math.sqrt(dx*dx + dy*dy);
+                                float overlap = ri + radii[c.getType(j)] - dist;
+                                if (overlap <= 0) continue;
+
+                                maxOverlap = Math.max(maxOverlap, overlap);
+                                if (dist > 0) {
+                                    dx /= dist;
+                                    dy /= dist;
+                                } else { // Coincident cells, separate along x
+                                    dx = 1;
+                                    dy = 0;
+                                }
+                                float half = 0.5f * overlap;
+                                moveX[i] += dx*half;
+                                moveY[i] += dy*half;
+                                moveX[j] -= dx*half;
+                                moveY[j] -= dy*half;
+                                contacts[i]++;
+                                contacts[j]++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) { // Apply averaged pushes together
+            if (contacts[i] == 0) continue;
+            float scale = factor / contacts[i];
+            c.setPosX(i, c.getPosX(i) + moveX[i]*scale);
+            c.setPosY(i, c.getPosY(i) + moveY[i]*scale);
+        }
+        return maxOverlap;
+    }
+
+    /**
+     * Performs one dilation pass.
+     * Cells closer than one radius to contact are grouped into clusters, and each cluster is scaled about
+     * its centroid by its mean compression, the ratio of contact distance to actual distance over its near pairs
+     * (pairs that do not overlap count as 1). A uniformly over-packed cluster is resolved in one pass,
+     * while a single defect in a loose cluster barely moves it and is left to the Jacobi passes.
+     * The scale is limited so that each cluster still fits between the borders, and a cluster that would
+     * cross a border is shifted back inside as a whole rather than having its cells clamped onto the wall.
+     * @param c         Cell storage
+     * @param radii     Radius per type id
+     * @param grid      Spatial grid, rebuilt for the current cells
+     * @param halfW     Half of the simulation width
+     * @param halfH     Half of the simulation height
+     * @return largest overlap found at the start of the pass
+     */
+    public float dilatePass(CellStorage c, float[] radii, SpatialGrid grid, float halfW, float halfH) {
+        for (int i = 0; i < count; i++) cluster[i] = i;
+        Arrays.fill(clusterSize, 0);
+        Arrays.fill(sumX, 0);
+        Arrays.fill(sumY, 0);
+        Arrays.fill(ratioSum, 0);
+        Arrays.fill(ratioCount, 0);
+        Arrays.fill(minX, Float.POSITIVE_INFINITY);
+        Arrays.fill(maxX, Float.NEGATIVE_INFINITY);
+        Arrays.fill(minY, Float.POSITIVE_INFINITY);
+        Arrays.fill(maxY, Float.NEGATIVE_INFINITY);
+
+        float maxOverlap = forEachNearPair(c, radii, grid, true);
+        forEachNearPair(c, radii, grid, false);
+
+        for (int i = 0; i < count; i++) { // Cluster centroids and bounding boxes
+            int root = find(i);
+            float x = c.getPosX(i);
+            float y = c.getPosY(i);
+            sumX[root] += x;
+            sumY[root] += y;
+            clusterSize[root]++;
+            minX[root] = Math.min(minX[root], x);
+            maxX[root] = Math.max(maxX[root], x);
+            minY[root] = Math.min(minY[root], y);
+            maxY[root] = Math.max(maxY[root], y);
+        }
+
+        for (int root = 0; root < count; root++) { // Scale and shift per cluster, stored as x' = x*k + offset
+            if (cluster[root] != root || ratioCount[root] == 0) continue;
+            double k = ratioSum[root] / ratioCount[root];
+            double cx = sumX[root] / clusterSize[root];
+            double cy = sumY[root] / clusterSize[root];
+            k = Math.min(k, fitScale(minX[root], maxX[root], halfW));
+            k = Math.min(k, fitScale(minY[root], maxY[root], halfH));
+            ratioSum[root] = k;
+            sumX[root] = cx*(1 - k) + shiftInside(cx + (minX[root] - cx)*k, cx + (maxX[root] - cx)*k, halfW);
+            sumY[root] = cy*(1 - k) + shiftInside(cy + (minY[root] - cy)*k, cy + (maxY[root] - cy)*k, halfH);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int root = find(i);
+            if (ratioCount[root] == 0) continue;
+            double k = ratioSum[root];
+            c.setPosX(i, (float)(c.getPosX(i)*k + sumX[root]));
+            c.setPosY(i, (float)(c.getPosY(i)*k + sumY[root]));
+        }
+        return maxOverlap;
+    }
+
+    /**
+     * Visits every pair of cells closer than one radius to contact.
+     * The window reaches up to three radii, past the 3x3 partition search used for collisions,
+     * so the partitions searched around each cell are widened to cover it.
+     * @param union When true, joins the clusters of each pair; otherwise adds each pair's compression to its cluster
+     * @return largest overlap found
+     */
+    private float forEachNearPair(CellStorage c, float[] radii, SpatialGrid grid, boolean union) {
+        int cols = grid.getCols();
+        int rows = grid.getRows();
+        int[] partitionStart = grid.getPartitionStart();
+        int[] partitionCells = grid.getPartitionCells();
+        float maxOverlap = 0;
+
+        float maxRadius = 0;
+        for (float r : radii) maxRadius = Math.max(maxRadius, r);
+        int reachX = Math.max(1, (int)Math.ceil(3*maxRadius / grid.getPartitionWidth()));  // Partitions searched on each side
+        int reachY = Math.max(1, (int)Math.ceil(3*maxRadius / grid.getPartitionHeight()));
+
+        for (int px = 0; px < cols; px++) { // Grid iteration
+            for (int py = 0; py < rows; py++) {
+                int p = px*rows + py;
+                for (int a = partitionStart[p]; a < partitionStart[p + 1]; a++) { // Cell iteration
+                    int i = partitionCells[a];
+                    float ri = radii[c.getType(i)];
+                    float xi = c.getPosX(i);
+                    float yi = c.getPosY(i);
+
+                    for (int nx = Math.max(0, px - reachX); nx <= Math.min(px + reachX, cols - 1); nx++) { // Neighbor partition iteration
+                        for (int ny = Math.max(0, py - reachY); ny <= Math.min(py + reachY, rows - 1); ny++) {
+                            int q = nx*rows + ny;
+                            for (int b = partitionStart[q]; b < partitionStart[q + 1]; b++) {
+                                int j = partitionCells[b];
+                                if (j <= i) continue; // Visit each pair once
+
+                                float rj = radii[c.getType(j)];
+                                float dx = xi - c.getPosX(j);
+                                float dy = yi - c.getPosY(j);
+                                float dist = (float)Math.sqrt(dx*dx + dy*dy);
+                                float minDist = ri + rj;
+                                if (dist >= minDist + Math.min(ri, rj)) continue;
+
+                                if (union) {
+                                    maxOverlap = Math.max(maxOverlap, minDist - dist);
+                                    int rootI = find(i);
+                                    int rootJ = find(j);
+                                    if (rootI != rootJ) cluster[rootI] = rootJ;
+                                } else {
+                                    int root = find(i);
+                                    ratioSum[root] += Math.max(1f, minDist / Math.max(dist, 0.5f*minDist)); // Capped at 2 for near-coincident pairs
+                                    ratioCount[root]++;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return maxOverlap;
+    }
+
+    /**
+     * Returns the largest scale, at least 1, at which an extent still fits between -half and half.
+     */
+    private static double fitScale(float min, float max, float half) {
+        float extent = max - min;
+        if (extent <= 0) return Double.POSITIVE_INFINITY;
+        return Math.max(1, 2*half / extent);
+    }
+
+    /**
+     * Returns the shift that moves an extent back between -half and half, or 0 if it is inside or too wide to fit.
+     */
+    private static double shiftInside(double min, double max, float half) {
+        if (min < -half && max > half) return 0;
+        if (min < -half) return -half - min;
+        if (max > half) return half - max;
+        return 0;
+    }
+
+    /**
+     * Returns the root of a cell's cluster, halving the path on the way.
+     */
+    private int find(int i) {
+        while (cluster[i] != i) {
+            cluster[i] = cluster[cluster[i]];
+            i = cluster[i];
+        }
+        return i;
+    }
+}
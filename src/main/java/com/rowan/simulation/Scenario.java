@@ -0,0 +1,231 @@
+package com.rowan.simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import com.rowan.physicsobject.cell.CellType;
+import com.rowan.physicsobject.cell.CellTypeRegistry;
+import com.rowan.utils.Utils;
+
+/**
+ * A batch of initial cells, built from generators or loaded from a file,
+ * and imported into a Simulation in one pass with Simulation.loadScenario.
+ */
+public class Scenario {
+    private int count = 0;
+    private int[] typeIds = new int[64];
+    private float[] xs = new float[64];
+    private float[] ys = new float[64];
+
+    /**
+     * Loads a scenario from a text file with one cell per line, written as "type,x,y".
+     * The type may be a registered type name or id. Blank lines and lines starting with '#' are ignored.
+     * @param file  File
+     * @param types Registry used to resolve type names
+     * @return scenario
+     */
+    public static Scenario load(Path file, CellTypeRegistry types) {
+        Scenario scenario = new Scenario();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] parts = line.split(",");
+                if (parts.length != 3) throw new IllegalArgumentException(file + ":" + lineNumber + ": expected type,x,y");
+                try {
+                    scenario.add(resolveType(parts[0].strip(), types), Float.parseFloat(parts[1].strip()), Float.parseFloat(parts[2].strip()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return scenario;
+    }
+
+    private static int resolveType(String name, CellTypeRegistry types) {
+        CellType type = types.get(name);
+        if (type != null) return type.getId();
+
+        int id;
+        try {
+            id = Integer.parseInt(name);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("unknown cell type " + name);
+        }
+        if (id < 0 || id >= types.size()) throw new IllegalArgumentException("unknown cell type " + name);
+        return id;
+    }
+
+    /**
+     * Adds a single cell.
+     * @param typeId    Type id
+     * @param x         x position, must be finite
+     * @param y         y position, must be finite
+     * @return this scenario
+     */
+    public Scenario add(int typeId, float x, float y) {
+        if (!Float.isFinite(x) || !Float.isFinite(y)) throw new IllegalArgumentException("non-finite position " + x + "," + y);
+        if (count == typeIds.length) {
+            typeIds = Arrays.copyOf(typeIds, count * 2);
+            xs = Arrays.copyOf(xs, count * 2);
+            ys = Arrays.copyOf(ys, count * 2);
+        }
+        typeIds[count] = typeId;
+        xs[count] = x;
+        ys[count] = y;
+        count++;
+        return this;
+    }
+
+    /**
+     * Adds cells on a hexagonal lattice, the densest packing of equal circles.
+     * @param typeId    Type id
+     * @param cx        x position of the lattice center
+     * @param cy        y position of the lattice center
+     * @param cols      Number of cells per row
+     * @param rows      Number of rows
+     * @param spacing   Distance between neighboring cells
+     * @return this scenario
+     */
+    public Scenario lattice(int typeId, float cx, float cy, int cols, int rows, float spacing) {
+        if (!(spacing > 0)) throw new IllegalArgumentException("lattice spacing must be positive, got " + spacing);
+        float rowHeight = spacing * (float)Math.sqrt(3) / 2f;
+        float x0 = cx - (cols - 1) * spacing / 2f;
+        float y0 = cy - (rows - 1) * rowHeight / 2f;
+
+        for (int r = 0; r < rows; r++) {
+            float offset = (r % 2 == 0) ? 0 : spacing / 2f;
+            for (int c = 0; c < cols; c++) {
+                add(typeId, x0 + c*spacing + offset, y0 + r*rowHeight);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds cells on a hexagonal lattice clipped to a disk.
+     * @param typeId    Type id
+     * @param cx        x position of the disk center
+     * @param cy        y position of the disk center
+     * @param radius    Disk radius
+     * @param spacing   Distance between neighboring cells
+     * @return this scenario
+     */
+    public Scenario disk(int typeId, float cx, float cy, float radius, float spacing) {
+        if (!(spacing > 0)) throw new IllegalArgumentException("disk spacing must be positive, got " + spacing);
+        float rowHeight = spacing * (float)Math.sqrt(3) / 2f;
+        int halfRows = (int)(radius / rowHeight);
+        int halfCols = (int)(radius / spacing) + 1;
+
+        for (int r = -halfRows; r <= halfRows; r++) {
+            float y = r * rowHeight;
+            float offset = (r % 2 == 0) ? 0 : spacing / 2f;
+            for (int c = -halfCols; c <= halfCols; c++) {
+                float x = c * spacing + offset;
+                if (x*x + y*y <= radius*radius) add(typeId, cx + x, cy + y);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds cells filling a disk with Poisson-disk sampling (Bridson's algorithm),
+     * giving an irregular tissue in which no two cells are closer than a minimum distance.
+     * @param typeId    Type id
+     * @param cx        x position of the disk center
+     * @param cy        y position of the disk center
+     * @param radius    Disk radius
+     * @param minDist   Minimum distance between cells
+     * @return this scenario
+     */
+    public Scenario poissonDisk(int typeId, float cx, float cy, float radius, float minDist) {
+        if (!(minDist > 0)) throw new IllegalArgumentException("Poisson disk minimum distance must be positive, got " + minDist);
+        if (!(radius >= 0)) throw new IllegalArgumentException("Poisson disk radius must not be negative, got " + radius);
+        final int attempts = 30;    // Candidates tried around each active sample before it is retired
+        float cellSize = minDist / (float)Math.sqrt(2);
+        int gridSize = (int)Math.ceil(2 * radius / cellSize);
+        int[] grid = new int[gridSize * gridSize]; // Background grid, holding sample index + 1 (0 = empty)
+
+        int start = count;
+        int[] active = new int[64];
+        int activeCount = 0;
+
+        add(typeId, cx, cy);
+        int center = sampleCell(0, gridSize, cellSize, radius);
+        grid[center * gridSize + center] = 1;
+        active[activeCount++] = 0;
+
+        while (activeCount > 0) {
+            int a = Utils.randomInt(0, activeCount);
+            int sample = active[a];
+            float sx = xs[start + sample] - cx;
+            float sy = ys[start + sample] - cy;
+
+            boolean placed = false;
+            for (int k = 0; k < attempts && !placed; k++) { // Try candidates in the annulus [minDist, 2*minDist)
+                float angle = Utils.randomRange(0f, (float)(2*Math.PI));
+                float dist = Utils.randomRange(minDist, 2*minDist);
+                float x = sx + dist*(float)Math.cos(angle);
+                float y = sy + dist*(float)Math.sin(angle);
+                if (x*x + y*y > radius*radius) continue;
+
+                int gx = sampleCell(x, gridSize, cellSize, radius);
+                int gy = sampleCell(y, gridSize, cellSize, radius);
+                if (isFarFromSamples(grid, gridSize, gx, gy, start, x + cx, y + cy, minDist)) {
+                    add(typeId, x + cx, y + cy);
+                    int index = count - start - 1;
+                    grid[gx * gridSize + gy] = index + 1;
+                    if (activeCount == active.length) active = Arrays.copyOf(active, activeCount * 2);
+                    active[activeCount++] = index;
+                    placed = true;
+                }
+            }
+
+            if (!placed) active[a] = active[--activeCount]; // Retire sample
+        }
+        return this;
+    }
+
+    private static int sampleCell(float v, int gridSize, float cellSize, float radius) {
+        return Math.max(0, Math.min((int)((v + radius) / cellSize), gridSize - 1));
+    }
+
+    private boolean isFarFromSamples(int[] grid, int gridSize, int gx, int gy, int start, float x, float y, float minDist) {
+        for (int i = Math.max(0, gx - 2); i <= Math.min(gx + 2, gridSize - 1); i++) {
+            for (int j = Math.max(0, gy - 2); j <= Math.min(gy + 2, gridSize - 1); j++) {
+                int other = grid[i * gridSize + j];
+                if (other == 0) continue;
+                float dx = xs[start + other - 1] - x;
+                float dy = ys[start + other - 1] - y;
+                if (dx*dx + dy*dy < minDist*minDist) return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int[] getTypeIds() {
+        return typeIds;
+    }
+
+    public float[] getXs() {
+        return xs;
+    }
+
+    public float[] getYs() {
+        return ys;
+    }
+}
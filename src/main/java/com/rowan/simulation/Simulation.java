@@ -1,16 +1,24 @@
 package com.rowan.simulation;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import com.rowan.physicsobject.PhysicsObject;
-import com.rowan.physicsobject.cell.Cell;
+import java.nio.file.Path;
+
+import org.joml.Vector2f;
+
+import com.rowan.display.CellRenderer;
+import com.rowan.physicsobject.cell.CellKernels;
+import com.rowan.physicsobject.cell.CellPopulation;
+import com.rowan.physicsobject.cell.CellStorage;
+import com.rowan.physicsobject.cell.CellType;
+import com.rowan.physicsobject.cell.CellTypeRegistry;
+import com.rowan.physicsobject.cell.HeapCellStorage;
+import com.rowan.physicsobject.cell.OverlapRelaxer;
+import com.rowan.physicsobject.cell.OffHeapCellStorage;
 import com.rowan.utils.Utils;
 
 import javafx.animation.AnimationTimer;
 import javafx.scene.Scene;
 import javafx.scene.layout.Pane;
-import javafx.scene.shape.Shape;
+import javafx.scene.paint.Color;
 
 /**
  * Handles simulation steps, looping, and parameters.
@@ -29,7 +37,7 @@ public class Simulation {
 
     public final float FRICTION = 0.96f;
     public final float CELL_RADIUS = 10f;
-    public final float CELL_CYCLE_LENGTH = 200f;
+    public final int CELL_CYCLE_LENGTH = 200;
     public final float CELL_REPULSION = 0.2f;
     public final float CELL_SPEED = 0.05f;
     public final float CELL_TURN_SPEED = 0.2f;
@@ -42,8 +50,25 @@ public class Simulation {
     public final int GRID_COLS = (int)ENV_WIDTH/PARTITION_WIDTH;
     public final int GRID_ROWS = (int)ENV_HEIGHT/PARTITION_HEIGHT;
 
-    private List<PhysicsObject>[][] grid = new ArrayList[GRID_COLS][GRID_ROWS];
-    private ArrayList<PhysicsObject> addQueue = new ArrayList<>();
+    public final int CELL_CAPACITY = 1024;          // Initial cell storage capacity
+    public final boolean OFF_HEAP_CELLS = false;    // Keep the stepping state outside the Java heap (rendering is capped at RENDER_LIMIT; relaxing a loaded scenario still uses on-heap scratch)
+    public final String CELL_STATE_FILE = "";       // With OFF_HEAP_CELLS, page cell state through disk and checkpoint it to this file
+
+    public final int RENDER_LIMIT = 100_000;        // With OFF_HEAP_CELLS, most cells drawn at once, sampled evenly when there are more
+
+    public final String SCENARIO_FILE = "";         // If set, load initial cells from this file (see Scenario.load)
+    public final float RELAX_TOLERANCE = 0.05f;     // Relaxation after loading a scenario stops once no pair overlaps by more than this
+    public final int RELAX_PATIENCE = 5;            // Relaxation stops after this many rounds in a row without RELAX_MIN_IMPROVEMENT
+    public final float RELAX_MIN_IMPROVEMENT = 0.02f; // Relative drop below the best overlap so far that counts as progress
+    public final int RELAX_PASSES = 20;             // Jacobi passes per relaxation round
+    public final float RELAX_FACTOR = 1f;           // Fraction of the averaged push applied per Jacobi pass
+
+    private final SpatialGrid grid = new SpatialGrid(ENV_WIDTH, ENV_HEIGHT, PARTITION_WIDTH, PARTITION_HEIGHT);
+    private final CellTypeRegistry cellTypes = new CellTypeRegistry(Math.min(PARTITION_WIDTH, PARTITION_HEIGHT) / 2f); // Wider cells could collide beyond the 3x3 neighbor search
+    private final CellPopulation population = new CellPopulation(cellTypes, createCellStorage());
+    private final CellRenderer renderer;
+
+    public final CellType GENERIC_CELL = new CellType("Generic", CELL_RADIUS, CELL_SPEED, CELL_TURN_SPEED, CELL_CYCLE_LENGTH, CELL_REPULSION, Color.SKYBLUE);
 
     /**
      * Creates a new Simulation with access to the scene and root group.
@@ -57,22 +82,130 @@ public class Simulation {
         this.SCREEN_WIDTH = (float) scene.getWidth();
         this.SCREEN_HEIGHT = (float) scene.getHeight();
 
-        initalizeGrid();
+        this.renderer = OFF_HEAP_CELLS ? new CellRenderer(root, RENDER_LIMIT) : new CellRenderer(root);
+
+        registerCellType(GENERIC_CELL);
 
-        setInitialConditions();
+        int saved = population.getStorage().savedCount();
+        if (saved > 0) population.restore(saved); // Resume from a checkpoint in CELL_STATE_FILE
+        else setInitialConditions();
+        grid.rebuild(population.getStorage(), population.size());
         startLoop();
     }
 
+    /**
+     * Creates the storage backend for cell state according to the storage parameters.
+     * @return cell storage
+     */
+    private CellStorage createCellStorage() {
+        if (!OFF_HEAP_CELLS) return new HeapCellStorage(CELL_CAPACITY);
+        if (CELL_STATE_FILE.isEmpty()) return OffHeapCellStorage.allocate(CELL_CAPACITY);
+        return OffHeapCellStorage.map(Path.of(CELL_STATE_FILE), CELL_CAPACITY);
+    }
+
     /**
      * Defines the initial setup (not parameters) for the simulation,
      * e.g. creation and position of initial cells.
      */
     private void setInitialConditions() {
-        for (int i = 0; i < 1; i++) {
-            new Cell(this, Utils.randomSquareVector2f(OFFSET_X));
+        Scenario scenario;
+        if (!SCENARIO_FILE.isEmpty()) {
+            scenario = Scenario.load(Path.of(SCENARIO_FILE), cellTypes);
+        } else {
+            scenario = new Scenario();
+            for (int i = 0; i < 1; i++) {
+                Vector2f pos = Utils.randomSquareVector2f(OFFSET_X);
+                scenario.add(GENERIC_CELL.getId(), pos.x, pos.y);
+            }
+        }
+
+        float overlap = loadScenario(scenario);
+        if (overlap >= RELAX_TOLERANCE) {
+            System.err.println("Warning: initial cells still overlap by up to " + overlap + " after relaxation; the scenario may be packed denser than fits");
         }
     }
 
+    /**
+     * Imports every cell of a scenario in one pass, then relaxes overlaps so the first step starts from rest.
+     * Cells are ordered by grid partition before import, so neighbors sit close together in storage.
+     * @param scenario  Scenario
+     * @return largest overlap left after relaxation, at or above RELAX_TOLERANCE if the cells could not be fully separated
+     */
+    public float loadScenario(Scenario scenario) {
+        int n = scenario.size();
+        int[] typeIds = scenario.getTypeIds();
+        float[] xs = scenario.getXs();
+        float[] ys = scenario.getYs();
+
+        int partitions = grid.getCols() * grid.getRows();
+        int[] partition = new int[n];
+        int[] start = new int[partitions + 1];
+        for (int k = 0; k < n; k++) { // Counting sort by partition
+            partition[k] = grid.partitionOf(xs[k], ys[k]);
+            start[partition[k] + 1]++;
+        }
+        for (int p = 0; p < partitions; p++) {
+            start[p + 1] += start[p];
+        }
+
+        int[] sortedTypes = new int[n];
+        float[] sortedXs = new float[n];
+        float[] sortedYs = new float[n];
+        for (int k = 0; k < n; k++) {
+            int i = start[partition[k]]++;
+            sortedTypes[i] = typeIds[k];
+            sortedXs[i] = xs[k];
+            sortedYs[i] = ys[k];
+        }
+
+        population.addAll(n, sortedTypes, sortedXs, sortedYs);
+        return relax();
+    }
+
+    /**
+     * Pushes overlapping cells apart without building up velocity.
+     * Used after bulk imports, where densely seeded cells would otherwise fly apart on the first step.
+     * Each round dilates over-packed clusters as a whole and then runs Jacobi passes for the remaining local overlaps.
+     * Relaxation stops once the largest overlap is below RELAX_TOLERANCE, or once RELAX_PATIENCE rounds in a row
+     * have not brought it RELAX_MIN_IMPROVEMENT below the best so far, e.g. when more cells are seeded than fit between the borders.
+     * @return largest remaining overlap
+     */
+    public float relax() {
+        CellStorage c = population.getStorage();
+        int count = population.size();
+        float[] radii = cellTypes.getRadii();
+        OverlapRelaxer relaxer = new OverlapRelaxer(count);
+
+        CellKernels.settle(c, 0, count);
+        grid.rebuild(c, count);
+        float overlap = relaxer.dilatePass(c, radii, grid, ENV_WIDTH / 2f, ENV_HEIGHT / 2f);
+        float best = overlap;
+        int stale = 0;
+
+        while (overlap >= RELAX_TOLERANCE && stale < RELAX_PATIENCE) {
+            CellKernels.borderConstraints(c, ENV_WIDTH / 2f, ENV_HEIGHT / 2f, 0, count);
+            for (int n = 0; n < RELAX_PASSES; n++) {
+                grid.rebuild(c, count);
+                if (relaxer.jacobiPass(c, radii, grid, RELAX_FACTOR) < RELAX_TOLERANCE) break;
+                CellKernels.borderConstraints(c, ENV_WIDTH / 2f, ENV_HEIGHT / 2f, 0, count);
+            }
+
+            grid.rebuild(c, count);
+            overlap = relaxer.dilatePass(c, radii, grid, ENV_WIDTH / 2f, ENV_HEIGHT / 2f);
+            if (overlap < best * (1 - RELAX_MIN_IMPROVEMENT)) {
+                best = overlap;
+                stale = 0;
+            } else {
+                stale++;
+            }
+        }
+
+        CellKernels.borderConstraints(c, ENV_WIDTH / 2f, ENV_HEIGHT / 2f, 0, count);
+        CellKernels.settle(c, 0, count);
+        grid.rebuild(c, count);
+        return relaxer.jacobiPass(c, radii, grid, 0); // Measures the final overlap without moving cells
+    }
+
     /**
      * Initializes the game loop.
      */
@@ -110,119 +243,65 @@ public class Simulation {
 
     /**
      * Handles game loop logic.
-     * Iterates through cells to perform physics and behavior calculations.
+     * Runs batched kernels over the cell population to perform physics and behavior calculations.
      * Called every simulation step.
      */
     public void gameLoop() {
-        for (int n = 0; n < 3; n++) { // Physics substeps
-            for (int i = 0; i < grid.length; i++) { // Grid iteration
-                for (int j = 0; j < grid[0].length; j++) {
-                    for (PhysicsObject o : grid[i][j]) { // Object iteration
-
-                        o.verletStep();
-
-                        for (int k : new int[]{-1, 0, 1}) { // Neighbor partition iteration
-                            for (int l : new int[]{-1, 0, 1}) {
-                                int nx = i + k; // Neighbor partition
-                                int ny = j + l; // Neighbor partition
-                                if (nx < 0 || ny < 0 || nx >= GRID_COLS || ny >= GRID_ROWS) continue;
-                                for (PhysicsObject other : grid[nx][ny]) {
-                                    if (other.equals(o)) continue;
-                                    PhysicsObject.verletCollisions(this, o, other);
-                                }
-                            }
-                        }
-
-                        o.verletBorderConstraints();
+        CellStorage c = population.getStorage();
+        int count = population.size();
 
-                    }
-                }
-            }
-        }
-
-        ArrayList<PhysicsObject> toReAdd = new ArrayList<>(); // Object to be re-added to grid
-
-        for (int i = 0; i < grid.length; i++) { // Cell processes
-            for (int j = 0; j < grid[0].length; j++) {
-                for (PhysicsObject o : grid[i][j]) {
-                    if (o instanceof Cell) {
-                        Cell c = (Cell) o;
-                        c.applyLocomotion();
-                        c.handleCellCycle();
-                    }
-                    o.updateShapePosition();
-
-                    if (!o.inExpectedPartition()) toReAdd.add(o);
-                }
-            }
+        for (int n = 0; n < 3; n++) { // Physics substeps
+            CellKernels.verletStep(c, FRICTION, 0, count);
+            CellKernels.collide(c, cellTypes.getRadii(), cellTypes.getRepulsions(), grid);
+            CellKernels.borderConstraints(c, ENV_WIDTH / 2f, ENV_HEIGHT / 2f, 0, count);
         }
 
-
-        toReAdd.addAll(addQueue);
-        addQueue.clear();
-
-        for (PhysicsObject o : toReAdd) { // Re-add objects to grid
-            o.recalculatePartition();
+        for (int t = 0; t < cellTypes.size(); t++) { // Cell processes, one batch per type
+            CellType type = cellTypes.get(t);
+            int start = population.typeStart(t);
+            int end = population.typeEnd(t);
+            CellKernels.locomotion(c, type, start, end);
+            CellKernels.cellCycle(population, type, start, end);
         }
 
-        
+        population.flushSpawns();
+        grid.rebuild(c, population.size());
+        renderer.update(population);
     }
 
-    
-
     /**
-     * Adds a shape to the scene.
-     * @param shape shape
+     * Registers a new cell type with the simulation.
+     * @param type  CellType
+     * @return assigned type id
      */
-    public void addShape(Shape shape) {
-        root.getChildren().add(shape);
+    public int registerCellType(CellType type) {
+        return cellTypes.register(type);
     }
 
     /**
-     * Adds a PhysicsObject to the creation queue.
-     * The object will be added in the next simulation step.
-     * @param o object
+     * Saves the current cells, if the storage backend is file-backed.
      */
-    public void addPhysicsObject(PhysicsObject o) {
-        addQueue.add(o);
+    public void checkpoint() {
+        population.getStorage().checkpoint(population.size());
     }
 
     /**
-     * Initializes the grid and adds empty partitions.
+     * Checkpoints and releases the cell storage.
      */
-    public void initalizeGrid() {
-        for (int i = 0; i < GRID_COLS; i++)
-            for (int j = 0; j < GRID_ROWS; j++)
-                grid[i][j] = new ArrayList<>();
+    public void close() {
+        checkpoint();
+        population.getStorage().close();
     }
 
-    /**
-     * Inserts PhysicsObject into grid.
-     * @param o Object
-     * @param x x index
-     * @param y y index
-     */
-    public void insertObjectIntoGrid(PhysicsObject o, int x, int y) {
-        grid[x][y].add(o);
+    public CellPopulation getPopulation() {
+        return population;
     }
 
-    /**
-     * Removes PhysicsObject from grid.
-     * @param o Object
-     * @param x x index
-     * @param y y index
-     */
-    public void removeObjectFromGrid(PhysicsObject o, int x, int y) {
-        List<PhysicsObject> cell = grid[x][y];
-        int idx = cell.indexOf(o);
-        if (idx != -1) {
-            int last = cell.size() - 1;
-            cell.set(idx, cell.get(last));
-            cell.remove(last);
-        }
+    public CellTypeRegistry getCellTypes() {
+        return cellTypes;
     }
 
-    public List<PhysicsObject>[][] getGrid() {
+    public SpatialGrid getGrid() {
         return grid;
     }
 
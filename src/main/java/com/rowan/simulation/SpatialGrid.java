@@ -0,0 +1,103 @@
+package com.rowan.simulation;
+
+import java.util.Arrays;
+
+import com.rowan.physicsobject.cell.CellStorage;
+
+/**
+ * Uniform grid over the simulation space used to find nearby cells.
+ * Rebuilt every step with a counting sort, so each partition is a contiguous run of cell indices
+ * rather than a list of objects.
+ */
+public class SpatialGrid {
+    private final int cols;
+    private final int rows;
+    private final float partitionWidth;
+    private final float partitionHeight;
+    private final float halfW;
+    private final float halfH;
+
+    private final int[] partitionStart;     // Cells of partition p are partitionCells[partitionStart[p]] to partitionCells[partitionStart[p + 1] - 1]
+    private final int[] cursor;
+    private int[] partitionCells = new int[0];
+
+    /**
+     * Creates a new SpatialGrid covering a space centered on the origin.
+     * @param width             Width of the simulation space
+     * @param height            Height of the simulation space
+     * @param partitionWidth    Width of one partition
+     * @param partitionHeight   Height of one partition
+     */
+    public SpatialGrid(float width, float height, float partitionWidth, float partitionHeight) {
+        this.cols = (int)(width / partitionWidth);
+        this.rows = (int)(height / partitionHeight);
+        this.partitionWidth = partitionWidth;
+        this.partitionHeight = partitionHeight;
+        this.halfW = width / 2f;
+        this.halfH = height / 2f;
+
+        partitionStart = new int[cols*rows + 1];
+        cursor = new int[cols*rows];
+    }
+
+    /**
+     * Reassigns every cell to the partition containing its position.
+     * @param c     Cell storage
+     * @param count Number of cells
+     */
+    public void rebuild(CellStorage c, int count) {
+        Arrays.fill(partitionStart, 0);
+        for (int i = 0; i < count; i++) { // Count cells per partition
+            int p = partitionOf(c.getPosX(i), c.getPosY(i));
+            c.setPartition(i, p);
+            partitionStart[p + 1]++;
+        }
+
+        for (int p = 0; p < cols*rows; p++) { // Prefix sum into start offsets
+            partitionStart[p + 1] += partitionStart[p];
+        }
+        System.arraycopy(partitionStart, 0, cursor, 0, cursor.length);
+
+        if (partitionCells.length < count) partitionCells = new int[Math.max(count, partitionCells.length * 2)];
+        for (int i = 0; i < count; i++) {
+            partitionCells[cursor[c.getPartition(i)]++] = i;
+        }
+    }
+
+    /**
+     * Returns the flat partition index containing a position.
+     * Positions outside the space are clamped to the border partitions.
+     * @param x x position
+     * @param y y position
+     * @return partition index
+     */
+    public int partitionOf(float x, float y) {
+        int px = Math.max(0, Math.min((int)((x + halfW) / partitionWidth), cols - 1));
+        int py = Math.max(0, Math.min((int)((y + halfH) / partitionHeight), rows - 1));
+        return px*rows + py;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float getPartitionWidth() {
+        return partitionWidth;
+    }
+
+    public float getPartitionHeight() {
+        return partitionHeight;
+    }
+
+    public int[] getPartitionStart() {
+        return partitionStart;
+    }
+
+    public int[] getPartitionCells() {
+        return partitionCells;
+    }
+}